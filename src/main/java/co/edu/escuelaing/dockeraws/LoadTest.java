@@ -0,0 +1,109 @@
+package co.edu.escuelaing.dockeraws;
+
+import co.edu.escuelaing.dockeraws.httpserver.HttpServer;
+import co.edu.escuelaing.dockeraws.loadtest.LoadGenerator;
+import co.edu.escuelaing.dockeraws.loadtest.LoadReport;
+import co.edu.escuelaing.dockeraws.loadtest.LoadTestConfig;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Load test client for the server. Sends a mix of requests at a constant
+ * rate (open mode) or from a fixed number of workers (closed mode) and writes
+ * a JSON and an HTML report with throughput, latency percentiles, error rates
+ * and GC/allocation statistics. Run it without arguments against a server
+ * on port 5000, or see {@link LoadTestConfig#usage()} for the options.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestConfig.usage());
+            System.exit(1);
+            return;
+        }
+
+        if (config.isEmbedded()) {
+            try {
+                startEmbeddedServer(config.getBaseUrl().getPort());
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+                return;
+            }
+        }
+
+        System.out.println("Running load test against " + config.getBaseUrl() + " " + config.toMap());
+        LoadReport report;
+        try {
+            report = new LoadGenerator(config).run();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+        Path json = report.writeTo(config.getOutputDir());
+
+        System.out.println(report.summary());
+        System.out.println("Report written to " + json.toAbsolutePath());
+        System.exit(0);
+    }
+
+    /**
+     * Starts the server in a daemon thread of this JVM, so that the GC and
+     * allocation statistics of the report include the server, and waits
+     * until it accepts connections. The port is checked first, so that a
+     * process already listening on it is not benchmarked by mistake.
+     *
+     * @param port port of the server, already resolved from {@code --url}.
+     * @throws IOException if the port is in use, the server fails to start,
+     * or it does not accept connections within 10 seconds.
+     */
+    private static void startEmbeddedServer(int port) throws IOException, InterruptedException {
+        try (ServerSocket probe = new ServerSocket(port)) {
+            // Only checks that the port is free; the server binds it below.
+        } catch (IOException e) {
+            throw new IOException("Cannot start the embedded server: port " + port + " is already in use", e);
+        }
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread server = new Thread(() -> {
+            try {
+                HttpServer.runServer(port);
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        }, "embedded-server");
+        server.setDaemon(true);
+        server.start();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (failure.get() != null) {
+                throw new IOException("The embedded server failed to start on port " + port, failure.get());
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 200);
+            } catch (IOException e) {
+                Thread.sleep(100);
+                continue;
+            }
+            // The connection may have reached another process that took the
+            // port after the check, in which case the server thread fails.
+            server.join(100);
+            if (failure.get() != null) {
+                throw new IOException("The embedded server failed to start on port " + port, failure.get());
+            }
+            return;
+        }
+        throw new IOException("The embedded server did not start on port " + port);
+    }
+}
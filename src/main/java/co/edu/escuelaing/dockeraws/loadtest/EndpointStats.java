@@ -0,0 +1,107 @@
+package co.edu.escuelaing.dockeraws.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results collected for one entry of the request mix, or for the whole run.
+ * <p>
+ * Two latencies are kept for every request. The response time is measured
+ * from the moment the request was supposed to start, so that a server which
+ * stalls is charged for the requests that queued up behind the stall
+ * (coordinated omission correction). The service time is measured from the
+ * moment the request was actually sent. In closed mode both are the same.
+ */
+public class EndpointStats {
+
+    private final String name;
+    private final LatencyRecorder responseTime;
+    private final LatencyRecorder serviceTime;
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the statistics of an endpoint.
+     *
+     * @param name name shown in the report.
+     * @param capacity expected number of requests, used to size the latency
+     * recorders.
+     */
+    public EndpointStats(String name, int capacity) {
+        this.name = name;
+        this.responseTime = new LatencyRecorder(capacity);
+        this.serviceTime = new LatencyRecorder(capacity);
+    }
+
+    /**
+     * Records a request that got an answer with a 2xx or 3xx status.
+     *
+     * @param responseNanos time since the intended start of the request.
+     * @param serviceNanos time since the request was sent.
+     * @param bytes size of the response body.
+     */
+    public void recordSuccess(long responseNanos, long serviceNanos, long bytes) {
+        responseTime.record(responseNanos);
+        serviceTime.record(serviceNanos);
+        successes.incrementAndGet();
+        bytesReceived.addAndGet(bytes);
+    }
+
+    /**
+     * Records a failed request. Failed requests also count towards the
+     * latencies, otherwise timeouts would make the percentiles look better.
+     *
+     * @param kind short description of the failure, such as "HTTP 404" or the
+     * exception name.
+     * @param responseNanos time since the intended start of the request.
+     * @param serviceNanos time since the request was sent.
+     */
+    public void recordError(String kind, long responseNanos, long serviceNanos) {
+        responseTime.record(responseNanos);
+        serviceTime.record(serviceNanos);
+        errors.computeIfAbsent(kind, k -> new LongAdder()).increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyRecorder getResponseTime() {
+        return responseTime;
+    }
+
+    public LatencyRecorder getServiceTime() {
+        return serviceTime;
+    }
+
+    public long getSuccesses() {
+        return successes.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    /**
+     * Returns the number of failed requests grouped by kind.
+     *
+     * @return failures sorted by kind.
+     */
+    public Map<String, Long> getErrors() {
+        Map<String, Long> result = new TreeMap<>();
+        errors.forEach((kind, count) -> result.put(kind, count.sum()));
+        return result;
+    }
+
+    public long getErrorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getRequests() {
+        return getSuccesses() + getErrorCount();
+    }
+}
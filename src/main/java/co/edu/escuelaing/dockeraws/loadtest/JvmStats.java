@@ -0,0 +1,103 @@
+package co.edu.escuelaing.dockeraws.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot of the garbage collection and allocation counters of the current
+ * JVM. Two snapshots, taken at the start and at the end of the measured
+ * window, give the GC activity and allocated bytes of the run.
+ */
+public class JvmStats {
+
+    private final Map<String, long[]> collectors = new LinkedHashMap<>();
+    private final long allocatedBytes;
+    private final long heapUsedBytes;
+
+    private JvmStats() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collectors.put(gc.getName(), new long[]{gc.getCollectionCount(), gc.getCollectionTime()});
+        }
+        allocatedBytes = allocatedBytes();
+        heapUsedBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Takes a snapshot of the counters.
+     *
+     * @return the current counters.
+     */
+    public static JvmStats capture() {
+        return new JvmStats();
+    }
+
+    /**
+     * Sums the bytes allocated by the live threads of the JVM. Threads that
+     * finished before the snapshot are not counted, so the value is a lower
+     * bound; it is accurate for long-lived thread pools such as the ones of
+     * the server and the load generator.
+     *
+     * @return allocated bytes, or -1 if the JVM does not support the
+     * measurement.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean sunThreads)
+                || !sunThreads.isThreadAllocatedMemorySupported()
+                || !sunThreads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long allocated : sunThreads.getThreadAllocatedBytes(sunThreads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Computes the activity between an earlier snapshot and this one.
+     *
+     * @param before snapshot taken at the start of the measured window.
+     * @param seconds length of the measured window.
+     * @return GC counts and times per collector, allocated bytes and heap
+     * usage, ready to be written in the report.
+     */
+    public Map<String, Object> since(JvmStats before, double seconds) {
+        List<Map<String, Object>> gcs = new ArrayList<>();
+        long totalCount = 0;
+        long totalTime = 0;
+        for (Map.Entry<String, long[]> entry : collectors.entrySet()) {
+            long[] start = before.collectors.getOrDefault(entry.getKey(), new long[]{0, 0});
+            long count = entry.getValue()[0] - start[0];
+            long time = entry.getValue()[1] - start[1];
+            totalCount += count;
+            totalTime += time;
+            Map<String, Object> gc = new LinkedHashMap<>();
+            gc.put("name", entry.getKey());
+            gc.put("collections", count);
+            gc.put("timeMs", time);
+            gcs.add(gc);
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("elapsedSeconds", Math.round(seconds * 1000.0) / 1000.0);
+        map.put("gcCollections", totalCount);
+        map.put("gcTimeMs", totalTime);
+        map.put("collectors", gcs);
+        if (allocatedBytes >= 0 && before.allocatedBytes >= 0) {
+            long allocated = allocatedBytes - before.allocatedBytes;
+            map.put("allocatedBytes", allocated);
+            map.put("allocationRateMBps", seconds > 0 ? Math.round(allocated / seconds / (1024 * 1024) * 1000.0) / 1000.0 : 0.0);
+        }
+        map.put("heapUsedBeforeBytes", before.heapUsedBytes);
+        map.put("heapUsedAfterBytes", heapUsedBytes);
+        map.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        return map;
+    }
+}
@@ -0,0 +1,85 @@
+package co.edu.escuelaing.dockeraws.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Keeps every latency sample of a run, in nanoseconds, so that exact
+ * percentiles can be computed at the end. A run of a few minutes produces at
+ * most some hundred thousand samples, which fit comfortably in memory.
+ */
+public class LatencyRecorder {
+
+    private long[] samples;
+    private int size;
+    private boolean sorted = true;
+
+    public LatencyRecorder() {
+        this(1024);
+    }
+
+    /**
+     * Creates a recorder with room for the given number of samples, so that
+     * it does not need to grow while a run is in progress.
+     *
+     * @param capacity expected number of samples.
+     */
+    public LatencyRecorder(int capacity) {
+        samples = new long[Math.max(16, capacity)];
+    }
+
+    /**
+     * Adds a sample.
+     *
+     * @param nanos the measured latency in nanoseconds.
+     */
+    public synchronized void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+        sorted = false;
+    }
+
+    public synchronized int count() {
+        return size;
+    }
+
+    /**
+     * Returns the value below which the given percentage of samples fall,
+     * using the nearest-rank method.
+     *
+     * @param percentile a value between 0 and 100.
+     * @return the percentile in nanoseconds, or 0 if there are no samples.
+     */
+    public synchronized long percentile(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(samples, 0, size);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * size);
+        return samples[Math.max(0, Math.min(size - 1, rank - 1))];
+    }
+
+    public synchronized long max() {
+        return percentile(100);
+    }
+
+    /**
+     * Returns the arithmetic mean of the samples.
+     *
+     * @return the mean in nanoseconds, or 0 if there are no samples.
+     */
+    public synchronized double mean() {
+        if (size == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += samples[i];
+        }
+        return sum / size;
+    }
+}
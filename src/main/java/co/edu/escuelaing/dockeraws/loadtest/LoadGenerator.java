@@ -0,0 +1,382 @@
+package co.edu.escuelaing.dockeraws.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests from a {@link RequestMix} to the server and collects the
+ * latencies, errors and JVM activity of the run.
+ * <p>
+ * In open mode a single scheduler thread starts a request every
+ * {@code 1 / rate} seconds and hands it to {@link HttpClient#sendAsync}, so a
+ * slow server does not slow down the arrival of new requests. In closed mode
+ * {@code concurrency} workers each send one request at a time. Requests whose
+ * intended start falls inside the warm-up period are sent but not recorded.
+ * <p>
+ * Response bodies are counted, not kept. In open mode the latency recorders
+ * are sized up front from {@code rate * duration}, so that the generator
+ * allocates little while it runs and the GC and allocation figures are
+ * meaningful when the server runs in the same JVM. In closed mode the number
+ * of requests is not known in advance: the recorders start with
+ * {@link #CLOSED_MODE_CAPACITY} samples and double when they fill up, and
+ * those copies are counted in the allocation figures.
+ */
+public class LoadGenerator {
+
+    /**
+     * Samples reserved for the whole run in closed mode, where the number of
+     * requests is not known in advance.
+     */
+    private static final int CLOSED_MODE_CAPACITY = 1 << 16;
+
+    /**
+     * How often the main thread checks whether the scheduler or a worker has
+     * failed while it waits for the end of the run.
+     */
+    private static final long FAILURE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Reads the response body, keeping only its size.
+     */
+    private static final HttpResponse.BodyHandler<Long> COUNT_BYTES
+            = info -> HttpResponse.BodySubscribers.fromSubscriber(new ByteCounter(), ByteCounter::count);
+
+    private final LoadTestConfig config;
+    private final RequestMix mix;
+    private final Map<String, EndpointStats> endpoints = new LinkedHashMap<>();
+    private final EndpointStats total;
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong lastCompletion = new AtomicLong();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private long warmupEnd;
+    private long end;
+
+    public LoadGenerator(LoadTestConfig config) {
+        this.config = config;
+        this.mix = RequestMix.parse(config.getMix());
+        long expected = expectedSamples(config);
+        for (RequestMix.Entry entry : mix.getEntries()) {
+            long share = (long) ((double) expected * entry.getWeight() / mix.getTotalWeight());
+            // 10% plus a constant above the weighted share covers the random
+            // variation of the picks, without reserving the full run size.
+            long capacity = Math.min(expected, share + share / 10 + 64);
+            endpoints.put(entry.getName(), new EndpointStats(entry.getName(), toCapacity(capacity)));
+        }
+        this.total = new EndpointStats("total", toCapacity(expected));
+    }
+
+    /**
+     * Estimates how many requests will be recorded, to size the recorders.
+     * In open mode this is exact: {@code rate * duration}.
+     */
+    private static long expectedSamples(LoadTestConfig config) {
+        if (config.getMode() == LoadTestConfig.Mode.CLOSED) {
+            return CLOSED_MODE_CAPACITY;
+        }
+        return (long) config.getRate() * config.getDurationSeconds() + 1;
+    }
+
+    private static int toCapacity(long samples) {
+        return (int) Math.min(samples, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Runs the warm-up and the measured window, waits for the requests still
+     * in flight and returns the collected results.
+     *
+     * @return the report of the run.
+     * @throws InterruptedException if the calling thread is interrupted.
+     * @throws IllegalStateException if the scheduler or a worker stopped
+     * because of an unexpected exception; no report is produced in that case.
+     */
+    public LoadReport run() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(config.getConcurrency());
+        try {
+            HttpClient.Builder builder = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(config.getTimeoutSeconds()));
+            if (config.getMode() == LoadTestConfig.Mode.OPEN) {
+                builder.executor(executor);
+            }
+            HttpClient client = builder.build();
+
+            Instant startedAt = Instant.now();
+            long start = System.nanoTime();
+            warmupEnd = start + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+            end = warmupEnd + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+
+            Thread scheduler = null;
+            if (config.getMode() == LoadTestConfig.Mode.OPEN) {
+                scheduler = new Thread(guarded(() -> runOpen(client, start)), "loadtest-scheduler");
+                scheduler.start();
+            } else {
+                for (int i = 0; i < config.getConcurrency(); i++) {
+                    long workerSeed = config.getSeed() + i;
+                    executor.execute(guarded(() -> runClosed(client, new Random(workerSeed))));
+                }
+            }
+
+            awaitDeadline(warmupEnd);
+            JvmStats before = JvmStats.capture();
+            awaitDeadline(end);
+            checkFailure();
+
+            long drainSeconds = 2L * config.getTimeoutSeconds() + 1;
+            long incomplete;
+            if (scheduler != null) {
+                scheduler.join();
+                incomplete = awaitInFlight(drainSeconds);
+            } else {
+                executor.shutdown();
+                executor.awaitTermination(drainSeconds, TimeUnit.SECONDS);
+                incomplete = awaitInFlight(0);
+            }
+            checkFailure();
+            double elapsedSeconds = (System.nanoTime() - warmupEnd) / 1e9;
+            JvmStats after = JvmStats.capture();
+
+            long last = lastCompletion.get();
+            double measuredSeconds = Math.max(config.getDurationSeconds(), last > warmupEnd ? (last - warmupEnd) / 1e9 : 0);
+            return new LoadReport(config, startedAt, endpoints.values(), total, measuredSeconds,
+                    incomplete, after.since(before, elapsedSeconds));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Wraps a task so that an unexpected exception is kept and makes
+     * {@link #run()} fail instead of producing an empty report.
+     */
+    private Runnable guarded(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+            }
+        };
+    }
+
+    private void checkFailure() {
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new IllegalStateException("Load test aborted: " + cause, cause);
+        }
+    }
+
+    /**
+     * Starts requests at their intended times until the end of the run. The
+     * intended times are fixed in advance, so if the scheduler falls behind
+     * the delay is added to the response time of the late requests.
+     */
+    private void runOpen(HttpClient client, long start) {
+        Random random = new Random(config.getSeed());
+        double interval = 1e9 / config.getRate();
+        for (long i = 0;; i++) {
+            long intended = start + (long) (i * interval);
+            if (intended >= end) {
+                return;
+            }
+            try {
+                sleepUntil(intended);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            RequestMix.Entry entry = mix.pick(random);
+            HttpRequest request = buildRequest(entry, i);
+            inFlight.incrementAndGet();
+            long sent = System.nanoTime();
+            client.sendAsync(request, COUNT_BYTES)
+                    .whenComplete((response, error) -> {
+                        try {
+                            complete(entry, intended, sent, response, error);
+                        } finally {
+                            requestFinished();
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Sends one request after the other until the end of the run, pausing
+     * the configured think time between them. Each worker numbers its own
+     * requests, so its sequence of paths only depends on the seed.
+     */
+    private void runClosed(HttpClient client, Random random) {
+        for (long n = 0; System.nanoTime() < end && !Thread.currentThread().isInterrupted(); n++) {
+            RequestMix.Entry entry = mix.pick(random);
+            long sent = System.nanoTime();
+            inFlight.incrementAndGet();
+            try {
+                complete(entry, sent, sent, client.send(buildRequest(entry, n), COUNT_BYTES), null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                complete(entry, sent, sent, null, e);
+            } finally {
+                requestFinished();
+            }
+            if (config.getThinkTimeMillis() > 0) {
+                try {
+                    Thread.sleep(config.getThinkTimeMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private HttpRequest buildRequest(RequestMix.Entry entry, long n) {
+        URI uri = config.getBaseUrl().resolve(entry.path(n));
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(config.getTimeoutSeconds()))
+                .GET()
+                .build();
+    }
+
+    /**
+     * Records the outcome of a request if it was intended to start inside
+     * the measured window.
+     */
+    private void complete(RequestMix.Entry entry, long intended, long sent,
+            HttpResponse<Long> response, Throwable error) {
+        long now = System.nanoTime();
+        if (intended < warmupEnd || intended >= end) {
+            return;
+        }
+        lastCompletion.accumulateAndGet(now, Math::max);
+        long responseNanos = now - intended;
+        long serviceNanos = now - sent;
+        EndpointStats stats = endpoints.get(entry.getName());
+        if (error != null) {
+            String kind = errorKind(error);
+            stats.recordError(kind, responseNanos, serviceNanos);
+            total.recordError(kind, responseNanos, serviceNanos);
+        } else if (response.statusCode() >= 400) {
+            String kind = "HTTP " + response.statusCode();
+            stats.recordError(kind, responseNanos, serviceNanos);
+            total.recordError(kind, responseNanos, serviceNanos);
+        } else {
+            long bytes = response.body() == null ? 0 : response.body();
+            stats.recordSuccess(responseNanos, serviceNanos, bytes);
+            total.recordSuccess(responseNanos, serviceNanos, bytes);
+        }
+    }
+
+    private static String errorKind(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getClass().getSimpleName();
+    }
+
+    private void requestFinished() {
+        if (inFlight.decrementAndGet() == 0) {
+            synchronized (inFlight) {
+                inFlight.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits for the requests that are still in flight. Every request has a
+     * timeout, so they normally finish within it. In closed mode the workers
+     * have already been given time to finish, so this only counts the ones
+     * still blocked in {@code send}.
+     *
+     * @param seconds maximum time to wait.
+     * @return the number of requests that did not finish in time.
+     */
+    private long awaitInFlight(long seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        synchronized (inFlight) {
+            while (inFlight.get() > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return inFlight.get();
+                }
+                inFlight.wait(remaining);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Sleeps until the deadline, returning early if the scheduler or a
+     * worker has failed.
+     */
+    private void awaitDeadline(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0 && failure.get() == null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            LockSupport.parkNanos(Math.min(remaining, FAILURE_POLL_NANOS));
+        }
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Counts the bytes of a response body without keeping them.
+     */
+    private static class ByteCounter implements Flow.Subscriber<List<ByteBuffer>> {
+
+        private long count;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (ByteBuffer buffer : buffers) {
+                count += buffer.remaining();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        long count() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package co.edu.escuelaing.dockeraws.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The results of a load test run, written as a JSON file for comparing runs
+ * with scripts and as an HTML page for reading them.
+ */
+public class LoadReport {
+
+    /**
+     * Percentiles reported for every latency.
+     */
+    static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final Map<String, Object> content = new LinkedHashMap<>();
+
+    /**
+     * Builds the report of a run.
+     *
+     * @param config settings of the run.
+     * @param startedAt wall clock time at which the run started.
+     * @param endpoints statistics of every entry of the mix.
+     * @param total statistics of the whole run.
+     * @param measuredSeconds length of the measured window, extended to the
+     * last recorded completion if that came later; the achieved throughput is
+     * computed over it.
+     * @param incomplete requests still in flight when the run gave up waiting.
+     * @param jvm GC and allocation activity, see {@link JvmStats#since}.
+     */
+    LoadReport(LoadTestConfig config, Instant startedAt, Collection<EndpointStats> endpoints,
+            EndpointStats total, double measuredSeconds, long incomplete, Map<String, Object> jvm) {
+        content.put("startedAt", startedAt.toString());
+        content.put("config", config.toMap());
+        content.put("environment", environment());
+        Map<String, Object> summary = stats(total, config, measuredSeconds);
+        summary.put("measuredSeconds", round(measuredSeconds));
+        summary.put("incomplete", incomplete);
+        content.put("summary", summary);
+        List<Map<String, Object>> perEndpoint = new ArrayList<>();
+        for (EndpointStats stats : endpoints) {
+            perEndpoint.add(stats(stats, config, measuredSeconds));
+        }
+        content.put("endpoints", perEndpoint);
+        Map<String, Object> jvmSection = new LinkedHashMap<>();
+        jvmSection.put("scope", config.isEmbedded() ? "load generator and embedded server" : "load generator only");
+        jvmSection.putAll(jvm);
+        content.put("jvm", jvmSection);
+    }
+
+    /**
+     * Summarizes one endpoint. The throughput counts successful responses
+     * only, over the measured window or the real time it took to get them if
+     * longer, so it drops when the server cannot keep up. In open mode the offered rate, requests started
+     * per second of the window, is reported next to it.
+     */
+    private static Map<String, Object> stats(EndpointStats stats, LoadTestConfig config, double measuredSeconds) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        long requests = stats.getRequests();
+        map.put("name", stats.getName());
+        map.put("requests", requests);
+        map.put("successes", stats.getSuccesses());
+        map.put("errors", stats.getErrorCount());
+        map.put("errorRate", requests == 0 ? 0.0 : round((double) stats.getErrorCount() / requests));
+        map.put("throughputPerSecond", measuredSeconds > 0 ? round(stats.getSuccesses() / measuredSeconds) : 0.0);
+        if (config.getMode() == LoadTestConfig.Mode.OPEN) {
+            map.put("offeredRatePerSecond", round((double) requests / config.getDurationSeconds()));
+        }
+        map.put("bytesReceived", stats.getBytesReceived());
+        map.put("responseTimeMs", latencies(stats.getResponseTime()));
+        map.put("serviceTimeMs", latencies(stats.getServiceTime()));
+        map.put("errorsByKind", new LinkedHashMap<>(stats.getErrors()));
+        return map;
+    }
+
+    private static Map<String, Object> latencies(LatencyRecorder recorder) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("mean", millis(recorder.mean()));
+        for (double p : PERCENTILES) {
+            map.put(percentileName(p), millis(recorder.percentile(p)));
+        }
+        map.put("max", millis(recorder.max()));
+        return map;
+    }
+
+    private static Map<String, Object> environment() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("javaVersion", System.getProperty("java.version"));
+        map.put("vm", System.getProperty("java.vm.name"));
+        map.put("os", System.getProperty("os.name") + " " + System.getProperty("os.version") + " " + System.getProperty("os.arch"));
+        map.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        return map;
+    }
+
+    static String percentileName(double p) {
+        String value = p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p).replace(".", "_");
+        return "p" + value;
+    }
+
+    private static double millis(double nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+
+    /**
+     * Writes {@code report-<timestamp>.json} and {@code report-<timestamp>.html}
+     * into the given directory, creating it if needed.
+     *
+     * @param directory output directory.
+     * @return the path of the JSON report.
+     * @throws IOException if the files cannot be written.
+     */
+    public Path writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        String stamp = FILE_STAMP.format(Instant.parse((String) content.get("startedAt")));
+        Path json = directory.resolve("report-" + stamp + ".json");
+        Files.writeString(json, toJson(), StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("report-" + stamp + ".html"), toHtml(), StandardCharsets.UTF_8);
+        return json;
+    }
+
+    /**
+     * Returns the report as a JSON document.
+     *
+     * @return the JSON text.
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        appendJson(sb, content, "");
+        return sb.append('\n').toString();
+    }
+
+    private static void appendJson(StringBuilder sb, Object value, String indent) {
+        String inner = indent + "  ";
+        if (value instanceof Map<?, ?> map) {
+            if (map.isEmpty()) {
+                sb.append("{}");
+                return;
+            }
+            sb.append("{\n");
+            int i = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                sb.append(inner).append(quote(String.valueOf(entry.getKey()))).append(": ");
+                appendJson(sb, entry.getValue(), inner);
+                sb.append(++i < map.size() ? ",\n" : "\n");
+            }
+            sb.append(indent).append('}');
+        } else if (value instanceof List<?> list) {
+            if (list.isEmpty()) {
+                sb.append("[]");
+                return;
+            }
+            sb.append("[\n");
+            for (int i = 0; i < list.size(); i++) {
+                sb.append(inner);
+                appendJson(sb, list.get(i), inner);
+                sb.append(i + 1 < list.size() ? ",\n" : "\n");
+            }
+            sb.append(indent).append(']');
+        } else if (value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else {
+            sb.append(quote(String.valueOf(value)));
+        }
+    }
+
+    private static String quote(String text) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Returns the report as a standalone HTML page.
+     *
+     * @return the HTML text.
+     */
+    @SuppressWarnings("unchecked")
+    public String toHtml() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n")
+                .append("<title>Load test report ").append(escape(content.get("startedAt"))).append("</title>\n")
+                .append("<style>body{font-family:sans-serif;margin:2em}table{border-collapse:collapse;margin-bottom:2em}")
+                .append("th,td{border:1px solid #ccc;padding:4px 8px;text-align:right}th:first-child,td:first-child{text-align:left}")
+                .append("th{background:#eee}</style>\n</head>\n<body>\n")
+                .append("<h1>Load test report</h1>\n<p>Started at ").append(escape(content.get("startedAt"))).append("</p>\n");
+
+        sb.append("<h2>Configuration</h2>\n");
+        appendKeyValues(sb, (Map<String, Object>) content.get("config"));
+        sb.append("<h2>Environment</h2>\n");
+        appendKeyValues(sb, (Map<String, Object>) content.get("environment"));
+
+        List<Map<String, Object>> rows = new ArrayList<>((List<Map<String, Object>>) content.get("endpoints"));
+        rows.add((Map<String, Object>) content.get("summary"));
+        sb.append("<h2>Throughput and errors</h2>\n<table>\n<tr><th>Endpoint</th><th>Requests</th><th>Errors</th>")
+                .append("<th>Error rate</th><th>Throughput (ok/s)</th><th>Offered rate (req/s)</th><th>Bytes received</th>")
+                .append("<th>Errors by kind</th></tr>\n");
+        for (Map<String, Object> row : rows) {
+            sb.append("<tr><td>").append(escape(row.get("name"))).append("</td><td>").append(row.get("requests"))
+                    .append("</td><td>").append(row.get("errors")).append("</td><td>").append(row.get("errorRate"))
+                    .append("</td><td>").append(row.get("throughputPerSecond"))
+                    .append("</td><td>").append(row.getOrDefault("offeredRatePerSecond", "-"))
+                    .append("</td><td>").append(row.get("bytesReceived"))
+                    .append("</td><td>").append(escape(row.get("errorsByKind"))).append("</td></tr>\n");
+        }
+        sb.append("</table>\n");
+        appendLatencyTable(sb, "Response time (ms, from intended start)", rows, "responseTimeMs");
+        appendLatencyTable(sb, "Service time (ms, from send)", rows, "serviceTimeMs");
+
+        Map<String, Object> jvm = new LinkedHashMap<>((Map<String, Object>) content.get("jvm"));
+        List<Map<String, Object>> collectors = (List<Map<String, Object>>) jvm.remove("collectors");
+        sb.append("<h2>JVM</h2>\n");
+        appendKeyValues(sb, jvm);
+        sb.append("<table>\n<tr><th>Collector</th><th>Collections</th><th>Time (ms)</th></tr>\n");
+        for (Map<String, Object> gc : collectors) {
+            sb.append("<tr><td>").append(escape(gc.get("name"))).append("</td><td>").append(gc.get("collections"))
+                    .append("</td><td>").append(gc.get("timeMs")).append("</td></tr>\n");
+        }
+        sb.append("</table>\n</body>\n</html>\n");
+        return sb.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void appendLatencyTable(StringBuilder sb, String title, List<Map<String, Object>> rows, String key) {
+        sb.append("<h2>").append(escape(title)).append("</h2>\n<table>\n<tr><th>Endpoint</th>");
+        Map<String, Object> first = (Map<String, Object>) rows.get(0).get(key);
+        for (String column : first.keySet()) {
+            sb.append("<th>").append(escape(column)).append("</th>");
+        }
+        sb.append("</tr>\n");
+        for (Map<String, Object> row : rows) {
+            sb.append("<tr><td>").append(escape(row.get("name"))).append("</td>");
+            for (Object value : ((Map<String, Object>) row.get(key)).values()) {
+                sb.append("<td>").append(value).append("</td>");
+            }
+            sb.append("</tr>\n");
+        }
+        sb.append("</table>\n");
+    }
+
+    private static void appendKeyValues(StringBuilder sb, Map<String, Object> values) {
+        sb.append("<table>\n");
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            sb.append("<tr><th>").append(escape(entry.getKey())).append("</th><td>")
+                    .append(escape(entry.getValue())).append("</td></tr>\n");
+        }
+        sb.append("</table>\n");
+    }
+
+    private static String escape(Object value) {
+        return String.valueOf(value).replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /**
+     * Returns a short text summary of the run for the console.
+     *
+     * @return the summary.
+     */
+    @SuppressWarnings("unchecked")
+    public String summary() {
+        Map<String, Object> total = (Map<String, Object>) content.get("summary");
+        Map<String, Object> latency = (Map<String, Object>) total.get("responseTimeMs");
+        return String.format("%s requests, %s ok/s, error rate %s, response time ms: p50=%s p99=%s p99.9=%s max=%s",
+                total.get("requests"), total.get("throughputPerSecond"), total.get("errorRate"),
+                latency.get("p50"), latency.get("p99"), latency.get("p99_9"), latency.get("max"));
+    }
+
+    /**
+     * Returns the report contents as nested maps and lists.
+     *
+     * @return the report contents.
+     */
+    public Map<String, Object> getContent() {
+        return content;
+    }
+}
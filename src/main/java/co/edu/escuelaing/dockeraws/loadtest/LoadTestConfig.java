@@ -0,0 +1,253 @@
+package co.edu.escuelaing.dockeraws.loadtest;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, parsed from {@code --key=value} command line
+ * arguments. Every option has a default so that the same command always
+ * produces a comparable run.
+ */
+public class LoadTestConfig {
+
+    /**
+     * How requests are issued against the server.
+     */
+    public enum Mode {
+        /**
+         * Requests are started at a constant arrival rate, regardless of how
+         * fast the server answers.
+         */
+        OPEN,
+        /**
+         * A fixed number of workers send a request, wait for the response and
+         * send the next one.
+         */
+        CLOSED
+    }
+
+    /**
+     * Port used by {@code --embedded} when {@code --url} does not give one;
+     * the same default as the server.
+     */
+    static final int DEFAULT_EMBEDDED_PORT = 5000;
+
+    private URI baseUrl = URI.create("http://localhost:5000");
+    private Mode mode = Mode.OPEN;
+    private int rate = 100;
+    private int concurrency = 10;
+    private int warmupSeconds = 5;
+    private int durationSeconds = 30;
+    private int timeoutSeconds = 5;
+    private long thinkTimeMillis = 0;
+    private long seed = 42;
+    private String mix = RequestMix.DEFAULT_MIX;
+    private Path outputDir = Path.of("target", "loadtest");
+    private boolean embedded = false;
+
+    /**
+     * Builds a configuration from the given arguments.
+     *
+     * @param args arguments in the form {@code --key=value} or {@code --flag}.
+     * @return the parsed configuration.
+     * @throws IllegalArgumentException if an option is unknown or its value
+     * is not valid.
+     */
+    public static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            String key = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+            String value = eq < 0 ? "" : arg.substring(eq + 1);
+            try {
+                switch (key) {
+                    case "url" -> config.baseUrl = parseUrl(value);
+                    case "mode" -> config.mode = Mode.valueOf(value.toUpperCase());
+                    case "rate" -> config.rate = positive(key, value);
+                    case "concurrency" -> config.concurrency = positive(key, value);
+                    case "warmup" -> config.warmupSeconds = Integer.parseInt(value);
+                    case "duration" -> config.durationSeconds = positive(key, value);
+                    case "timeout" -> config.timeoutSeconds = positive(key, value);
+                    case "think" -> config.thinkTimeMillis = Long.parseLong(value);
+                    case "seed" -> config.seed = Long.parseLong(value);
+                    case "mix" -> config.mix = value;
+                    case "out" -> config.outputDir = Path.of(value);
+                    case "embedded" -> {
+                        if (eq >= 0) {
+                            throw new IllegalArgumentException("--embedded does not take a value: " + arg);
+                        }
+                        config.embedded = true;
+                    }
+                    default -> throw new IllegalArgumentException("Unknown option: --" + key);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for --" + key + ": " + value, e);
+            }
+        }
+        if (config.warmupSeconds < 0 || config.thinkTimeMillis < 0) {
+            throw new IllegalArgumentException("--warmup and --think cannot be negative");
+        }
+        RequestMix.parse(config.mix);
+        if (config.embedded) {
+            config.baseUrl = embeddedUrl(config.baseUrl);
+        }
+        return config;
+    }
+
+    /**
+     * Checks that the URL can be used to send requests: it must be an
+     * absolute http or https URL with a host.
+     */
+    private static URI parseUrl(String value) {
+        URI uri = URI.create(value);
+        String scheme = uri.getScheme();
+        if (scheme == null || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https")) || uri.getHost() == null) {
+            throw new IllegalArgumentException("--url must be an http or https URL with a host, such as http://localhost:5000: " + value);
+        }
+        return uri;
+    }
+
+    /**
+     * Checks that an embedded server can be reached through the URL and
+     * fills in its port, so that the server and the requests use the same
+     * one.
+     */
+    private static URI embeddedUrl(URI uri) {
+        if (!uri.getScheme().equalsIgnoreCase("http")) {
+            throw new IllegalArgumentException("--embedded only supports http URLs: " + uri);
+        }
+        if (!isLocalHost(uri.getHost())) {
+            throw new IllegalArgumentException("--embedded needs a --url on this machine: " + uri);
+        }
+        if (uri.getPort() >= 0) {
+            return uri;
+        }
+        try {
+            return new URI(uri.getScheme(), uri.getUserInfo(), uri.getHost(), DEFAULT_EMBEDDED_PORT,
+                    uri.getPath(), uri.getQuery(), uri.getFragment());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid value for --url: " + uri, e);
+        }
+    }
+
+    private static boolean isLocalHost(String host) {
+        try {
+            InetAddress address = InetAddress.getByName(host);
+            return address.isLoopbackAddress() || address.isAnyLocalAddress()
+                    || NetworkInterface.getByInetAddress(address) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int positive(String key, String value) {
+        int n = Integer.parseInt(value);
+        if (n <= 0) {
+            throw new IllegalArgumentException("--" + key + " must be greater than zero");
+        }
+        return n;
+    }
+
+    /**
+     * Returns the supported options, printed when the arguments are invalid.
+     *
+     * @return a usage message.
+     */
+    public static String usage() {
+        return "Usage: java -cp \"target/classes:target/dependency/*\" co.edu.escuelaing.dockeraws.LoadTest [options]\n"
+                + "  --url=http://localhost:5000   server under test\n"
+                + "  --mode=open|closed            constant arrival rate or fixed number of workers\n"
+                + "  --rate=100                    requests per second (open mode)\n"
+                + "  --concurrency=10              client threads (open) or workers (closed)\n"
+                + "  --warmup=5                    seconds excluded from the report\n"
+                + "  --duration=30                 measured seconds\n"
+                + "  --timeout=5                   per request timeout in seconds\n"
+                + "  --think=0                     pause between requests of a worker in ms (closed mode)\n"
+                + "  --mix=" + RequestMix.DEFAULT_MIX + "  weighted endpoints (greeting, parity, static or /path)\n"
+                + "  --seed=42                     seed used to pick requests (per worker in closed mode)\n"
+                + "  --out=target/loadtest         directory for the JSON and HTML reports\n"
+                + "  --embedded                    start the server inside this JVM on the --url port (default 5000)";
+    }
+
+    /**
+     * Returns the settings as ordered key/value pairs, as shown in the report.
+     *
+     * @return the configuration values.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("url", baseUrl.toString());
+        map.put("mode", mode.name().toLowerCase());
+        if (mode == Mode.OPEN) {
+            map.put("rate", rate);
+        }
+        map.put("concurrency", concurrency);
+        map.put("warmupSeconds", warmupSeconds);
+        map.put("durationSeconds", durationSeconds);
+        map.put("timeoutSeconds", timeoutSeconds);
+        if (mode == Mode.CLOSED) {
+            map.put("thinkTimeMillis", thinkTimeMillis);
+        }
+        map.put("mix", mix);
+        map.put("seed", seed);
+        map.put("embedded", embedded);
+        return map;
+    }
+
+    public URI getBaseUrl() {
+        return baseUrl;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public long getThinkTimeMillis() {
+        return thinkTimeMillis;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getMix() {
+        return mix;
+    }
+
+    public Path getOutputDir() {
+        return outputDir;
+    }
+
+    public boolean isEmbedded() {
+        return embedded;
+    }
+}
@@ -0,0 +1,160 @@
+package co.edu.escuelaing.dockeraws.loadtest;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A weighted set of endpoints from which the load generator picks each
+ * request. A mix is written as {@code name:weight} pairs separated by commas,
+ * for example {@code greeting:4,parity:4,static:2}. Besides the names
+ * {@code greeting}, {@code parity} and {@code static}, any path starting with
+ * "/" can be used as an entry.
+ */
+public class RequestMix {
+
+    /**
+     * Mix used when none is given.
+     */
+    public static final String DEFAULT_MIX = "greeting:4,parity:4,static:2";
+
+    /**
+     * Static assets of the {@code webroot} directory requested in turn by the
+     * {@code static} entry.
+     */
+    static final String[] STATIC_ASSETS = {"/index.html", "/styles.css", "/script.js", "/gatito.jpg", "/perrito.jpg"};
+
+    /**
+     * One endpoint of the mix with its relative weight.
+     */
+    public static class Entry {
+
+        private final String name;
+        private final int weight;
+
+        Entry(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        /**
+         * Builds the path of the n-th request sent to this entry. Query
+         * values change with {@code n} so that responses are not all the
+         * same.
+         *
+         * @param n sequence number of the request.
+         * @return the request path, including the query.
+         */
+        public String path(long n) {
+            return switch (name) {
+                case "greeting" -> "/app/greeting?name=user" + (n % 1000);
+                case "parity" -> "/app/parity?number=" + n;
+                case "static" -> STATIC_ASSETS[(int) (n % STATIC_ASSETS.length)];
+                default -> name;
+            };
+        }
+    }
+
+    private final List<Entry> entries;
+    private final int totalWeight;
+
+    private RequestMix(List<Entry> entries, int totalWeight) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.totalWeight = totalWeight;
+    }
+
+    /**
+     * Parses a mix definition.
+     *
+     * @param definition comma separated {@code name:weight} pairs; the weight
+     * defaults to 1 when omitted or when the text after the last ":" is not a
+     * number.
+     * @return the parsed mix.
+     * @throws IllegalArgumentException if an entry name, path or weight is
+     * not valid, the weights add up to more than {@link Integer#MAX_VALUE},
+     * or the mix is empty.
+     */
+    public static RequestMix parse(String definition) {
+        List<Entry> entries = new ArrayList<>();
+        int totalWeight = 0;
+        for (String part : definition.split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) {
+                continue;
+            }
+            // The weight is only split off when it is a number, so paths
+            // such as /app/greeting?name=a:b can be used without one.
+            int colon = part.lastIndexOf(':');
+            String name = part;
+            int weight = 1;
+            if (colon >= 0 && part.substring(colon + 1).matches("-?\\d+")) {
+                name = part.substring(0, colon);
+                try {
+                    weight = Integer.parseInt(part.substring(colon + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid weight in mix entry: " + part, e);
+                }
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix entry: " + part);
+            }
+            if (name.startsWith("/")) {
+                try {
+                    URI.create(name);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid path in mix entry: " + name, e);
+                }
+            } else if (!name.equals("greeting") && !name.equals("parity") && !name.equals("static")) {
+                throw new IllegalArgumentException("Unknown mix entry: " + name);
+            }
+            if (weight > 0) {
+                try {
+                    totalWeight = Math.addExact(totalWeight, weight);
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException("The weights of the request mix are too large: " + definition, e);
+                }
+                entries.add(new Entry(name, weight));
+            }
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("The request mix is empty: " + definition);
+        }
+        return new RequestMix(entries, totalWeight);
+    }
+
+    /**
+     * Picks an entry with a probability proportional to its weight.
+     *
+     * @param random source of randomness; a seeded one makes the sequence of
+     * requests repeatable.
+     * @return the chosen entry.
+     */
+    public Entry pick(Random random) {
+        int r = random.nextInt(totalWeight);
+        for (Entry entry : entries) {
+            r -= entry.getWeight();
+            if (r < 0) {
+                return entry;
+            }
+        }
+        return entries.get(entries.size() - 1);
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public int getTotalWeight() {
+        return totalWeight;
+    }
+}
@@ -0,0 +1,122 @@
+package co.edu.escuelaing.loadtest;
+
+import co.edu.escuelaing.dockeraws.loadtest.LoadGenerator;
+import co.edu.escuelaing.dockeraws.loadtest.LoadReport;
+import co.edu.escuelaing.dockeraws.loadtest.LoadTestConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the load generator for one second against a stub server that answers
+ * 200 on /app/greeting and 404 on any other path.
+ */
+public class LoadGeneratorTest {
+
+    private HttpServer stub;
+    private String url;
+
+    @BeforeEach
+    public void startStub() throws Exception {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/", exchange -> {
+            boolean found = exchange.getRequestURI().getPath().equals("/app/greeting");
+            byte[] body = (found ? "Hola" : "404 - Not Found").getBytes();
+            exchange.sendResponseHeaders(found ? 200 : 404, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.start();
+        url = "http://localhost:" + stub.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    public void testOpenModeRecordsEveryScheduledRequest() throws Exception {
+        LoadReport report = run("--mode=open", "--rate=50");
+        Map<String, Object> summary = summary(report);
+        assertEquals(50L, summary.get("requests"));
+        assertEquals(50.0, summary.get("offeredRatePerSecond"));
+        assertTrue((Double) summary.get("throughputPerSecond") <= 50.0);
+        assertTrue((Double) summary.get("measuredSeconds") >= 1.0);
+        assertEquals(0L, summary.get("incomplete"));
+        assertCountsMatch(report);
+    }
+
+    @Test
+    public void testClosedModeRecordsRequestsAndErrors() throws Exception {
+        LoadReport report = run("--mode=closed", "--concurrency=2");
+        Map<String, Object> summary = summary(report);
+        assertTrue((Long) summary.get("requests") > 0);
+        assertFalse(summary.containsKey("offeredRatePerSecond"));
+        assertEquals(0L, summary.get("incomplete"));
+        assertCountsMatch(report);
+    }
+
+    @Test
+    public void testReportIsWrittenAsJsonAndHtml(@TempDir Path dir) throws Exception {
+        LoadReport report = run("--mode=open", "--rate=20");
+        report.getContent().put("note", "say \"hi\"");
+
+        String json = report.toJson();
+        for (String key : new String[]{"\"config\"", "\"summary\"", "\"endpoints\"", "\"jvm\"",
+            "\"throughputPerSecond\"", "\"responseTimeMs\"", "\"p99_9\"", "\"errorsByKind\""}) {
+            assertTrue(json.contains(key), "Missing key " + key);
+        }
+        assertTrue(json.contains("\"note\": \"say \\\"hi\\\"\""));
+
+        Path written = report.writeTo(dir);
+        assertTrue(Files.exists(written));
+        assertTrue(Files.exists(dir.resolve(written.getFileName().toString().replace(".json", ".html"))));
+    }
+
+    private LoadReport run(String... options) throws Exception {
+        String[] args = new String[options.length + 4];
+        System.arraycopy(options, 0, args, 0, options.length);
+        args[options.length] = "--url=" + url;
+        args[options.length + 1] = "--warmup=0";
+        args[options.length + 2] = "--duration=1";
+        args[options.length + 3] = "--mix=greeting:1,/missing:1";
+        return new LoadGenerator(LoadTestConfig.parse(args)).run();
+    }
+
+    /**
+     * Checks that greetings all succeed, that every request to /missing is a
+     * 404, and that the endpoints add up to the total.
+     */
+    @SuppressWarnings("unchecked")
+    private static void assertCountsMatch(LoadReport report) {
+        List<Map<String, Object>> endpoints = (List<Map<String, Object>>) report.getContent().get("endpoints");
+        Map<String, Object> greeting = endpoints.get(0);
+        Map<String, Object> missing = endpoints.get(1);
+        assertEquals("greeting", greeting.get("name"));
+        assertEquals("/missing", missing.get("name"));
+
+        assertEquals(0L, greeting.get("errors"));
+        assertTrue((Long) greeting.get("successes") > 0);
+        assertTrue((Long) missing.get("requests") > 0);
+        assertEquals(Map.of("HTTP 404", missing.get("requests")), missing.get("errorsByKind"));
+
+        Map<String, Object> summary = summary(report);
+        assertEquals((Long) greeting.get("requests") + (Long) missing.get("requests"), summary.get("requests"));
+        assertEquals(Map.of("HTTP 404", missing.get("requests")), summary.get("errorsByKind"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> summary(LoadReport report) {
+        return (Map<String, Object>) report.getContent().get("summary");
+    }
+}
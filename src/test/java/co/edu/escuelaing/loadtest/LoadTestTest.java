@@ -0,0 +1,109 @@
+package co.edu.escuelaing.loadtest;
+
+import co.edu.escuelaing.dockeraws.loadtest.LatencyRecorder;
+import co.edu.escuelaing.dockeraws.loadtest.LoadTestConfig;
+import co.edu.escuelaing.dockeraws.loadtest.RequestMix;
+import org.junit.jupiter.api.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadTestTest {
+
+    @Test
+    public void testPercentilesUseNearestRank() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 100; i >= 1; i--) {
+            recorder.record(i);
+        }
+        assertEquals(100, recorder.count());
+        assertEquals(50, recorder.percentile(50));
+        assertEquals(99, recorder.percentile(99));
+        assertEquals(100, recorder.percentile(99.9));
+        assertEquals(100, recorder.max());
+        assertEquals(50.5, recorder.mean(), 0.0001);
+    }
+
+    @Test
+    public void testEmptyRecorderReturnsZero() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        assertEquals(0, recorder.percentile(99));
+        assertEquals(0.0, recorder.mean());
+    }
+
+    @Test
+    public void testMixPicksByWeight() {
+        RequestMix mix = RequestMix.parse("greeting:3,parity:1,static:0");
+        assertEquals(2, mix.getEntries().size());
+
+        Map<String, Integer> counts = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 4000; i++) {
+            counts.merge(mix.pick(random).getName(), 1, Integer::sum);
+        }
+        assertTrue(counts.get("greeting") > 2800 && counts.get("greeting") < 3200);
+        assertFalse(counts.containsKey("static"));
+    }
+
+    @Test
+    public void testMixBuildsPaths() {
+        RequestMix mix = RequestMix.parse("greeting,parity,static,/404.html:2");
+        assertEquals("/app/greeting?name=user7", mix.getEntries().get(0).path(7));
+        assertEquals("/app/parity?number=7", mix.getEntries().get(1).path(7));
+        assertEquals("/index.html", mix.getEntries().get(2).path(0));
+        assertEquals("/404.html", mix.getEntries().get(3).path(7));
+    }
+
+    @Test
+    public void testMixKeepsColonsInPathsWithoutWeight() {
+        RequestMix mix = RequestMix.parse("/app/greeting?name=a:b,/app/parity?number=4:3");
+        assertEquals("/app/greeting?name=a:b", mix.getEntries().get(0).getName());
+        assertEquals(1, mix.getEntries().get(0).getWeight());
+        assertEquals("/app/parity?number=4", mix.getEntries().get(1).getName());
+        assertEquals(3, mix.getEntries().get(1).getWeight());
+    }
+
+    @Test
+    public void testMixRejectsUnknownEntry() {
+        assertThrows(IllegalArgumentException.class, () -> RequestMix.parse("hello:1"));
+        assertThrows(IllegalArgumentException.class, () -> RequestMix.parse("greeting:0"));
+        assertThrows(IllegalArgumentException.class, () -> RequestMix.parse("greeting:2000000000,parity:2000000000"));
+        assertThrows(IllegalArgumentException.class, () -> RequestMix.parse("/a b"));
+    }
+
+    @Test
+    public void testConfigParsesOptions() {
+        LoadTestConfig config = LoadTestConfig.parse(new String[]{
+            "--mode=closed", "--concurrency=4", "--duration=10", "--url=http://localhost:8087", "--embedded"});
+        assertEquals(LoadTestConfig.Mode.CLOSED, config.getMode());
+        assertEquals(4, config.getConcurrency());
+        assertEquals(10, config.getDurationSeconds());
+        assertEquals(8087, config.getBaseUrl().getPort());
+        assertTrue(config.isEmbedded());
+    }
+
+    @Test
+    public void testConfigRejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse(new String[]{"--rate=0"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse(new String[]{"--rate=abc"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse(new String[]{"--unknown=1"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse(new String[]{"--embedded=false"}));
+    }
+
+    @Test
+    public void testConfigRejectsUrlWithoutHttpSchemeOrHost() {
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse(new String[]{"--url=localhost:5000"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse(new String[]{"--url=ftp://localhost:5000"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse(new String[]{"--url=/app/greeting"}));
+    }
+
+    @Test
+    public void testEmbeddedUsesOnePortForServerAndRequests() {
+        LoadTestConfig config = LoadTestConfig.parse(new String[]{"--embedded", "--url=http://localhost"});
+        assertEquals(5000, config.getBaseUrl().getPort());
+        assertThrows(IllegalArgumentException.class,
+                () -> LoadTestConfig.parse(new String[]{"--embedded", "--url=http://192.0.2.1:5000"}));
+    }
+}